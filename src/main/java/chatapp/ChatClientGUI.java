@@ -53,6 +53,8 @@ public class ChatClientGUI extends JFrame {
     private static final Color MESSAGE_RECEIVED = new Color(55, 65, 81);
     
     private static final String PLACEHOLDER_TEXT = "Your Name";
+    // Marks private search replies from the server; must match ClientHandler.SEARCH_PREFIX
+    private static final String SEARCH_PREFIX = "\u0001SEARCH ";
     
     public ChatClientGUI() {
         initializeUI();
@@ -333,7 +335,8 @@ public class ChatClientGUI extends JFrame {
     }
     
     private void connect() {
-        String inputName = usernameField.getText().trim();
+        // Control characters are reserved for protocol markers such as SEARCH_PREFIX
+        String inputName = usernameField.getText().replaceAll("\\p{Cntrl}", "").trim();
         // Treat placeholder as empty
         if (inputName.isEmpty() || inputName.equals(PLACEHOLDER_TEXT)) {
             username = "User";
@@ -390,7 +393,10 @@ public class ChatClientGUI extends JFrame {
     private void sendMessage() {
         String message = messageField.getText().trim();
         if (!message.isEmpty()) {
-            if (connected && out != null) {
+            if (connected && out != null && (message.equals("/search") || message.startsWith("/search "))) {
+                // Search commands go to the server as-is; results come back only to us
+                out.println(message);
+            } else if (connected && out != null) {
                 // Send to server - it will broadcast back to everyone including us
                 out.println(username + ": " + message);
             } else {
@@ -410,8 +416,12 @@ public class ChatClientGUI extends JFrame {
                 SwingUtilities.invokeLater(() -> {
                     String timestamp = new SimpleDateFormat("h:mm a").format(new Date());
                     
+                    // Search results from the server
+                    if (msg.startsWith(SEARCH_PREFIX)) {
+                        appendMessage(msg.substring(SEARCH_PREFIX.length()), "Search", timestamp, false);
+                    }
                     // Check if user joined
-                    if (msg.contains("has joined the chat")) {
+                    else if (msg.contains("has joined the chat")) {
                         String joinedUser = msg.replace(" has joined the chat", "").trim();
                         if (!joinedUser.equals(username)) {
                             addUserToList(joinedUser);
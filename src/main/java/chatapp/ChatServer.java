@@ -2,10 +2,12 @@ package chatapp;
 
 import java.io.*;
 import java.net.*;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 public class ChatServer {
     private static List<ClientHandler> clients = new ArrayList<>();
+    private static MessageIndex index = new MessageIndex();
 
     public static void main(String[] args) throws IOException {
         try (ServerSocket serverSocket = new ServerSocket(5000)) {
@@ -16,7 +18,7 @@ public class ChatServer {
                 Socket clientSocket = serverSocket.accept();
                 System.out.println("✅ Client connected: " + clientSocket.getInetAddress().getHostAddress());
 
-                ClientHandler clientThread = new ClientHandler(clientSocket, clients);
+                ClientHandler clientThread = new ClientHandler(clientSocket, clients, index);
                 clients.add(clientThread);
                 new Thread(clientThread).start();
                 System.out.println("📊 Total clients connected: " + clients.size() + "\n");
@@ -26,14 +28,21 @@ public class ChatServer {
 }
 
 class ClientHandler implements Runnable {
+    static final String ROOM = "main";
+    static final String SEARCH_COMMAND = "/search";
+    // Starts with a control character so it can never begin a "name: text" or join line
+    static final String SEARCH_PREFIX = "\u0001SEARCH ";
+
     private Socket clientSocket;
     private List<ClientHandler> clients;
+    private MessageIndex index;
     private PrintWriter out;
     private BufferedReader in;
 
-    public ClientHandler(Socket socket, List<ClientHandler> clients) throws IOException {
+    public ClientHandler(Socket socket, List<ClientHandler> clients, MessageIndex index) throws IOException {
         this.clientSocket = socket;
         this.clients = clients;
+        this.index = index;
         this.out = new PrintWriter(clientSocket.getOutputStream(), true);
         this.in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
     }
@@ -42,10 +51,25 @@ class ClientHandler implements Runnable {
         try {
             String inputLine;
             while ((inputLine = in.readLine()) != null) {
+                // A bare "/search" is still a command and gets the usage reply
+                if (inputLine.equals(SEARCH_COMMAND) || inputLine.startsWith(SEARCH_COMMAND + " ")) {
+                    handleSearch(inputLine.substring(SEARCH_COMMAND.length()));
+                    continue;
+                }
+                // The search prefix is reserved for replies from handleSearch, so clients can't fake results
+                if (inputLine.startsWith(SEARCH_PREFIX)) {
+                    System.out.println("🚫 Dropped line with reserved prefix: " + inputLine);
+                    continue;
+                }
                 System.out.println("📨 Broadcasting: " + inputLine);
                 for (ClientHandler aClient : clients) {
                     aClient.out.println(inputLine);
                 }
+                // Only chat lines ("sender: text") are searchable; indexing happens on its own thread
+                int separator = inputLine.indexOf(": ");
+                if (separator > 0) {
+                    index.submit(ROOM, inputLine.substring(0, separator), inputLine.substring(separator + 2), System.currentTimeMillis());
+                }
             }
         } catch (IOException e) {
             System.out.println("⚠️  Error occurred: " + e.getMessage());
@@ -61,4 +85,31 @@ class ClientHandler implements Runnable {
             }
         }
     }
-}
\ No newline at end of file
+
+    // Results go back to the requesting client only
+    private void handleSearch(String args) {
+        MessageIndex.Query query;
+        try {
+            query = MessageIndex.parseQuery(args);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            query = null;
+        }
+        if (query == null || query.isEmpty()) {
+            out.println(SEARCH_PREFIX + "Invalid query. Usage: /search words from:name after:yyyy-MM-dd before:yyyy-MM-dd page:n");
+            return;
+        }
+        MessageIndex.Page result = index.search(ROOM, query);
+        if (result.total == 0) {
+            out.println(SEARCH_PREFIX + "0 result(s)");
+            return;
+        }
+        if (result.page > result.pageCount()) {
+            out.println(SEARCH_PREFIX + "No page " + result.page + ", only " + result.pageCount() + " page(s) of results");
+            return;
+        }
+        out.println(SEARCH_PREFIX + result.total + " result(s), page " + result.page + " of " + result.pageCount());
+        for (MessageIndex.Message msg : result.hits) {
+            out.println(SEARCH_PREFIX + MessageIndex.format(msg));
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package chatapp;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MessageIndex {
+    public static final int PAGE_SIZE = 10;
+    public static final int DEFAULT_MAX_MESSAGES = 10_000;
+    // Messages waiting to be indexed; past this the indexer is behind and new messages are not indexed
+    private static final int MAX_PENDING = 10_000;
+
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final Map<String, Room> rooms = new HashMap<>();
+    // Relay threads only enqueue; a single indexer thread owns all writes
+    private final BlockingQueue<Runnable> pending = new LinkedBlockingQueue<>(MAX_PENDING);
+    private final int maxMessagesPerRoom;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public MessageIndex() {
+        this(DEFAULT_MAX_MESSAGES);
+    }
+
+    // Each room keeps at most maxMessagesPerRoom messages; the oldest are dropped first
+    public MessageIndex(int maxMessagesPerRoom) {
+        if (maxMessagesPerRoom < 1) {
+            throw new IllegalArgumentException("maxMessagesPerRoom must be at least 1: " + maxMessagesPerRoom);
+        }
+        this.maxMessagesPerRoom = maxMessagesPerRoom;
+        Thread indexer = new Thread(this::runIndexer, "message-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    // Called from the relay path, so it must never block
+    public void submit(String room, String sender, String text, long timestamp) {
+        if (!pending.offer(() -> add(room, sender, text, timestamp))) {
+            long count = dropped.incrementAndGet();
+            // Log the first drop and then every 1000th, so a backlog can't flood the console
+            if (count == 1 || count % 1000 == 0) {
+                System.out.println("⚠️  Search index is behind, messages not indexed so far: " + count);
+            }
+        }
+    }
+
+    // Number of messages that were relayed but never indexed because the queue was full
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    synchronized void add(String room, String sender, String text, long timestamp) {
+        rooms.computeIfAbsent(room, r -> new Room(maxMessagesPerRoom)).add(new Message(sender, text, timestamp));
+    }
+
+    private void runIndexer() {
+        try {
+            while (true) {
+                pending.take().run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized Page search(String room, Query query) {
+        Room r = rooms.get(room);
+        if (r == null) {
+            return new Page(Collections.emptyList(), 0, query.page);
+        }
+        return r.search(query);
+    }
+
+    // Parses "/search" arguments: plain words are terms, plus from:, after:, before: and page: filters
+    public static Query parseQuery(String input) {
+        Query query = new Query();
+        for (String token : input.trim().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String lower = token.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("from:")) {
+                query.sender = token.substring(5);
+            } else if (lower.startsWith("after:")) {
+                query.after = parseTime(token.substring(6), false);
+            } else if (lower.startsWith("before:")) {
+                query.before = parseTime(token.substring(7), true);
+            } else if (lower.startsWith("page:")) {
+                query.page = Math.max(1, Integer.parseInt(token.substring(5)));
+            } else {
+                query.terms.addAll(tokenize(token));
+            }
+        }
+        return query;
+    }
+
+    // Accepts "2024-01-31" or "2024-01-31T14:30"; a bare date used as an upper bound covers the whole day
+    private static long parseTime(String value, boolean endOfDay) {
+        ZoneId zone = ZoneId.systemDefault();
+        if (value.contains("T")) {
+            return LocalDateTime.parse(value).atZone(zone).toInstant().toEpochMilli();
+        }
+        LocalDate date = LocalDate.parse(value);
+        if (endOfDay) {
+            date = date.plusDays(1);
+        }
+        return date.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    public static String format(Message msg) {
+        String time = Instant.ofEpochMilli(msg.timestamp).atZone(ZoneId.systemDefault()).format(DISPLAY_FORMAT);
+        return "[" + time + "] " + msg.sender + ": " + msg.text;
+    }
+
+    public static class Query {
+        Set<String> terms = new LinkedHashSet<>();
+        String sender;
+        long after = Long.MIN_VALUE;
+        long before = Long.MAX_VALUE;
+        int page = 1;
+
+        boolean isEmpty() {
+            return terms.isEmpty() && sender == null && after == Long.MIN_VALUE && before == Long.MAX_VALUE;
+        }
+    }
+
+    public static class Page {
+        public final List<Message> hits;
+        public final int total;
+        public final int page;
+
+        Page(List<Message> hits, int total, int page) {
+            this.hits = hits;
+            this.total = total;
+            this.page = page;
+        }
+
+        public int pageCount() {
+            return Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+        }
+    }
+
+    public static class Message {
+        public final String sender;
+        public final String text;
+        public final long timestamp;
+
+        Message(String sender, String text, long timestamp) {
+            this.sender = sender;
+            this.text = text;
+            this.timestamp = timestamp;
+        }
+    }
+
+    // Per-room store; message ids are positions in the messages list
+    private static class Room {
+        private final int maxMessages;
+        private final List<Message> messages = new ArrayList<>();
+        private long[] timestamps = new long[64];
+        private final Map<String, PostingList> termPostings = new HashMap<>();
+        private final Map<String, PostingList> senderPostings = new HashMap<>();
+
+        Room(int maxMessages) {
+            this.maxMessages = maxMessages;
+        }
+
+        void add(Message msg) {
+            if (messages.size() >= maxMessages) {
+                trim();
+            }
+            int id = messages.size();
+            // Relay threads stamp messages concurrently, so clamp to keep timestamps sorted for binary search
+            long ts = id > 0 ? Math.max(msg.timestamp, timestamps[id - 1]) : msg.timestamp;
+            append(msg, ts);
+        }
+
+        // Drops the oldest quarter and rebuilds the postings, so the cost is spread over many adds
+        private void trim() {
+            int drop = Math.max(1, maxMessages / 4);
+            List<Message> kept = new ArrayList<>(messages.subList(drop, messages.size()));
+            long[] keptTimestamps = Arrays.copyOfRange(timestamps, drop, messages.size());
+            messages.clear();
+            timestamps = new long[Math.max(64, keptTimestamps.length * 2)];
+            termPostings.clear();
+            senderPostings.clear();
+            for (int i = 0; i < kept.size(); i++) {
+                append(kept.get(i), keptTimestamps[i]);
+            }
+        }
+
+        private void append(Message msg, long ts) {
+            int id = messages.size();
+            if (id == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, id * 2);
+            }
+            timestamps[id] = ts;
+            messages.add(msg);
+
+            for (String term : tokenize(msg.text)) {
+                termPostings.computeIfAbsent(term, t -> new PostingList()).add(id);
+            }
+            senderPostings.computeIfAbsent(msg.sender.toLowerCase(Locale.ROOT), s -> new PostingList()).add(id);
+        }
+
+        Page search(Query query) {
+            int from = lowerBound(query.after);
+            int to = query.before == Long.MAX_VALUE ? messages.size() : lowerBound(query.before);
+            if (query.isEmpty() || from >= to) {
+                return new Page(Collections.emptyList(), 0, query.page);
+            }
+
+            List<PostingList> lists = new ArrayList<>();
+            for (String term : query.terms) {
+                PostingList list = termPostings.get(term);
+                if (list == null) {
+                    return new Page(Collections.emptyList(), 0, query.page);
+                }
+                lists.add(list);
+            }
+            if (query.sender != null) {
+                PostingList list = senderPostings.get(query.sender.toLowerCase(Locale.ROOT));
+                if (list == null) {
+                    return new Page(Collections.emptyList(), 0, query.page);
+                }
+                lists.add(list);
+            }
+
+            int[] ids;
+            if (lists.isEmpty()) {
+                ids = new int[to - from];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = from + i;
+                }
+            } else {
+                // Intersect starting from the rarest list to keep the candidate set small
+                lists.sort(Comparator.comparingInt(l -> l.size));
+                ids = lists.get(0).decode(from, to);
+                for (int i = 1; i < lists.size() && ids.length > 0; i++) {
+                    ids = intersect(ids, lists.get(i).decode(from, to));
+                }
+            }
+
+            // Newest hits first; offset is a long so huge page numbers can't overflow
+            long start = (query.page - 1L) * PAGE_SIZE;
+            List<Message> hits = new ArrayList<>();
+            if (start >= ids.length) {
+                return new Page(hits, ids.length, query.page);
+            }
+            for (int i = ids.length - 1 - (int) start; i >= 0 && hits.size() < PAGE_SIZE; i--) {
+                hits.add(messages.get(ids[i]));
+            }
+            return new Page(hits, ids.length, query.page);
+        }
+
+        // First message id whose timestamp is >= time
+        private int lowerBound(long time) {
+            int lo = 0;
+            int hi = messages.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (timestamps[mid] < time) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+
+    // Ascending message ids stored as variable-length deltas, usually one byte per posting
+    private static class PostingList {
+        private byte[] data = new byte[8];
+        private int length = 0;
+        private int lastId = -1;
+        private int size = 0;
+
+        void add(int id) {
+            int delta = id - lastId;
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            lastId = id;
+            size++;
+        }
+
+        // Returns ids in [from, to)
+        int[] decode(int from, int to) {
+            int[] ids = new int[size];
+            int n = 0;
+            int id = -1;
+            int pos = 0;
+            while (pos < length) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                id += delta;
+                if (id >= to) {
+                    break;
+                }
+                if (id >= from) {
+                    ids[n++] = id;
+                }
+            }
+            return Arrays.copyOf(ids, n);
+        }
+    }
+}
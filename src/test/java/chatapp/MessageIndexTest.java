@@ -0,0 +1,145 @@
+package chatapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageIndexTest {
+    private static final String ROOM = "main";
+
+    private static long at(String localDateTime) {
+        return LocalDateTime.parse(localDateTime).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static List<String> texts(MessageIndex.Page page) {
+        List<String> texts = new ArrayList<>();
+        for (MessageIndex.Message msg : page.hits) {
+            texts.add(msg.text);
+        }
+        return texts;
+    }
+
+    @Test
+    public void findsPostingsMoreThan128IdsApart() {
+        MessageIndex index = new MessageIndex();
+        for (int i = 0; i < 400; i++) {
+            String text = (i == 0 || i == 130 || i == 399) ? "rare " + i : "filler " + i;
+            index.add(ROOM, "bob", text, 1000L + i);
+        }
+
+        MessageIndex.Page page = index.search(ROOM, MessageIndex.parseQuery("rare"));
+
+        assertEquals(3, page.total);
+        assertEquals(List.of("rare 399", "rare 130", "rare 0"), texts(page));
+    }
+
+    @Test
+    public void requiresAllTermsAndSender() {
+        MessageIndex index = new MessageIndex();
+        index.add(ROOM, "alice", "deploy failed", 1000L);
+        index.add(ROOM, "alice", "deploy worked", 1001L);
+        index.add(ROOM, "bob", "deploy failed again", 1002L);
+        index.add(ROOM, "Alice", "the deploy has failed", 1003L);
+
+        MessageIndex.Page page = index.search(ROOM, MessageIndex.parseQuery("deploy FAILED from:alice"));
+
+        assertEquals(List.of("the deploy has failed", "deploy failed"), texts(page));
+    }
+
+    @Test
+    public void beforeBareDateIncludesThatWholeDay() {
+        MessageIndex index = new MessageIndex();
+        index.add(ROOM, "bob", "early", at("2024-01-31T00:00"));
+        index.add(ROOM, "bob", "late", at("2024-01-31T23:59"));
+        index.add(ROOM, "bob", "next day", at("2024-02-01T00:00"));
+
+        assertEquals(List.of("late", "early"),
+            texts(index.search(ROOM, MessageIndex.parseQuery("before:2024-01-31"))));
+        assertEquals(List.of("next day"),
+            texts(index.search(ROOM, MessageIndex.parseQuery("after:2024-02-01"))));
+        assertEquals(List.of("late"),
+            texts(index.search(ROOM, MessageIndex.parseQuery("after:2024-01-31T12:00 before:2024-01-31"))));
+    }
+
+    @Test
+    public void pagesNewestFirstAcrossPageBoundary() {
+        MessageIndex index = new MessageIndex();
+        for (int i = 0; i < 25; i++) {
+            index.add(ROOM, "bob", "hello " + i, 1000L + i);
+        }
+
+        MessageIndex.Page first = index.search(ROOM, MessageIndex.parseQuery("hello"));
+        MessageIndex.Page second = index.search(ROOM, MessageIndex.parseQuery("hello page:2"));
+        MessageIndex.Page third = index.search(ROOM, MessageIndex.parseQuery("hello page:3"));
+
+        assertEquals(25, first.total);
+        assertEquals(3, first.pageCount());
+        assertEquals("hello 24", first.hits.get(0).text);
+        assertEquals("hello 15", first.hits.get(MessageIndex.PAGE_SIZE - 1).text);
+        assertEquals("hello 14", second.hits.get(0).text);
+        assertEquals("hello 5", second.hits.get(MessageIndex.PAGE_SIZE - 1).text);
+        assertEquals(List.of("hello 4", "hello 3", "hello 2", "hello 1", "hello 0"), texts(third));
+    }
+
+    @Test
+    public void hugePageNumberReturnsEmptyPage() {
+        MessageIndex index = new MessageIndex();
+        for (int i = 0; i < 300; i++) {
+            index.add(ROOM, "bob", "deploy " + i, 1000L + i);
+        }
+
+        MessageIndex.Page page = index.search(ROOM, MessageIndex.parseQuery("deploy page:300000000"));
+
+        assertEquals(300, page.total);
+        assertEquals(300000000, page.page);
+        assertTrue(page.hits.isEmpty());
+    }
+
+    @Test
+    public void dropsOldestQuarterWhenRetentionCapIsReached() {
+        MessageIndex index = new MessageIndex(100);
+        // After 1000 adds the room is exactly full; the 1001st trims it to 75 before being added, then 9 more follow
+        for (int i = 0; i < 1010; i++) {
+            index.add(ROOM, "bob", "msg " + i, 1000L + i);
+        }
+
+        MessageIndex.Page first = index.search(ROOM, MessageIndex.parseQuery("from:bob"));
+        MessageIndex.Page last = index.search(ROOM, MessageIndex.parseQuery("from:bob page:9"));
+
+        assertEquals(85, first.total);
+        assertEquals("msg 1009", first.hits.get(0).text);
+        assertEquals("msg 925", last.hits.get(last.hits.size() - 1).text);
+        assertEquals(0, index.search(ROOM, MessageIndex.parseQuery("924")).total);
+    }
+
+    @Test
+    public void rejectsNonPositiveRetentionCap() {
+        assertThrows(IllegalArgumentException.class, () -> new MessageIndex(0));
+        assertThrows(IllegalArgumentException.class, () -> new MessageIndex(-5));
+    }
+
+    @Test
+    public void submittedMessagesAreIndexedInTheBackground() throws InterruptedException {
+        MessageIndex index = new MessageIndex();
+        for (int i = 0; i < 50; i++) {
+            index.submit(ROOM, "alice", "queued " + i, 1000L + i);
+        }
+
+        MessageIndex.Query query = MessageIndex.parseQuery("queued");
+        long deadline = System.currentTimeMillis() + 5000;
+        MessageIndex.Page page = index.search(ROOM, query);
+        while (page.total < 50 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            page = index.search(ROOM, query);
+        }
+
+        assertEquals(50, page.total);
+        assertEquals("queued 49", page.hits.get(0).text);
+        assertEquals(0, index.droppedCount());
+    }
+}